@@ -0,0 +1,76 @@
+package com.pkcedemo.backend.audit;
+
+import com.pkcedemo.backend.model.dto.AuditEventDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Binary form of an audit record body: the epoch-millis timestamp followed by
+ * actor, action, target, outcome and detail as length-prefixed UTF-8 (length -1 means null).
+ */
+final class AuditRecordCodec {
+
+    private AuditRecordCodec() {
+    }
+
+    static byte[] encode(AuditEventDto event) {
+        byte[][] fields = {
+                bytes(event.getActor()),
+                bytes(event.getAction()),
+                bytes(event.getTarget()),
+                bytes(event.getOutcome()),
+                bytes(event.getDetail())
+        };
+
+        int size = Long.BYTES;
+        for (byte[] field : fields) {
+            size += Integer.BYTES + (field == null ? 0 : field.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(event.getTimestamp().toEpochMilli());
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(field.length).put(field);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decode a record body. Reads through a duplicate so the caller's buffer position is left untouched.
+     */
+    static AuditEventDto decode(ByteBuffer body) {
+        ByteBuffer buffer = body.duplicate();
+        return AuditEventDto.builder()
+                .timestamp(Instant.ofEpochMilli(buffer.getLong()))
+                .actor(string(buffer))
+                .action(string(buffer))
+                .target(string(buffer))
+                .outcome(string(buffer))
+                .detail(string(buffer))
+                .build();
+    }
+
+    static long timestampOf(ByteBuffer body) {
+        return body.getLong(body.position());
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,341 @@
+package com.pkcedemo.backend.audit;
+
+import com.pkcedemo.backend.model.dto.AuditEventDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped segment file of the audit log.
+ * <p>
+ * Layout: a {@value #HEADER_SIZE} byte header followed by records of the form
+ * {@code [int length][body][int crc32c(body)]}. A zero length marks the end of the written data.
+ * Instances are only ever touched by the writer thread; readers go through the static {@link #scan} instead.
+ */
+final class AuditSegment implements Closeable {
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_OVERHEAD = Integer.BYTES * 2;
+
+    private static final int MAGIC = 0x41554454; // "AUDT"
+    private static final int VERSION = 1;
+    private static final int FLAG_SEALED = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int FLAGS_OFFSET = 8;
+    private static final int FIRST_TIMESTAMP_OFFSET = 16;
+    private static final int LAST_TIMESTAMP_OFFSET = 24;
+    private static final int DATA_END_OFFSET = 32;
+    private static final int MERGED_THROUGH_OFFSET = 40;
+
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".seg";
+
+    /**
+     * Header fields as seen by readers and the compactor.
+     * {@code mergedThrough} is the highest sequence whose records this file contains.
+     */
+    record Header(boolean sealed, long firstTimestamp, long lastTimestamp, long dataEnd, long mergedThrough) {
+
+        boolean isEmpty() {
+            return dataEnd <= HEADER_SIZE;
+        }
+
+        long dataLength() {
+            return dataEnd - HEADER_SIZE;
+        }
+    }
+
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+
+    private int position;
+    private int forcedPosition;
+    private long firstTimestamp;
+    private long lastTimestamp;
+
+    private AuditSegment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Path pathFor(Path directory, long sequence) {
+        return directory.resolve(String.format("%s%019d%s", FILE_PREFIX, sequence, FILE_SUFFIX));
+    }
+
+    /**
+     * Sequence number encoded in a segment file name, or -1 if the path is not a segment.
+     */
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name, FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Create and map a brand new, empty segment.
+     */
+    static AuditSegment create(Path directory, long sequence, int size) throws IOException {
+        Path path = pathFor(directory, sequence);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AuditSegment segment = new AuditSegment(sequence, path, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+
+        segment.buffer.putInt(MAGIC_OFFSET, MAGIC);
+        segment.buffer.putInt(VERSION_OFFSET, VERSION);
+        segment.buffer.putInt(FLAGS_OFFSET, 0);
+        segment.buffer.putLong(MERGED_THROUGH_OFFSET, sequence);
+        segment.position = HEADER_SIZE;
+        segment.forcedPosition = HEADER_SIZE;
+        segment.firstTimestamp = Long.MAX_VALUE;
+        segment.lastTimestamp = Long.MIN_VALUE;
+        segment.commit(true);
+        return segment;
+    }
+
+    /**
+     * Re-open the unsealed tail segment after a restart, recovering the write position by
+     * walking records until the first one that is missing or fails its checksum.
+     *
+     * @return the segment, or {@code null} if the file is sealed or not a valid segment
+     */
+    static AuditSegment recover(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Header header = readHeader(channel);
+        if (header == null || header.sealed()) {
+            channel.close();
+            return null;
+        }
+
+        AuditSegment segment = new AuditSegment(sequenceOf(path), path, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        segment.firstTimestamp = Long.MAX_VALUE;
+        segment.lastTimestamp = Long.MIN_VALUE;
+
+        int position = HEADER_SIZE;
+        int length;
+        while ((length = validRecordLength(segment.buffer, position, segment.buffer.capacity(), segment.crc)) > 0) {
+            long timestamp = segment.buffer.getLong(position + Integer.BYTES);
+            segment.firstTimestamp = Math.min(segment.firstTimestamp, timestamp);
+            segment.lastTimestamp = Math.max(segment.lastTimestamp, timestamp);
+            position += RECORD_OVERHEAD + length;
+        }
+        // Clear the length of a torn trailing record so readers stop here
+        if (position + Integer.BYTES <= segment.buffer.capacity()) {
+            segment.buffer.putInt(position, 0);
+        }
+        segment.position = position;
+        segment.forcedPosition = HEADER_SIZE;
+        segment.commit(true);
+        return segment;
+    }
+
+    static Header readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // keep reading until the header is complete
+        }
+        if (header.hasRemaining() || header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            return null;
+        }
+        return new Header(
+                (header.getInt(FLAGS_OFFSET) & FLAG_SEALED) != 0,
+                header.getLong(FIRST_TIMESTAMP_OFFSET),
+                header.getLong(LAST_TIMESTAMP_OFFSET),
+                header.getLong(DATA_END_OFFSET),
+                header.getLong(MERGED_THROUGH_OFFSET));
+    }
+
+    static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * Stream the records of one segment whose timestamp falls in {@code [fromMillis, toMillis]} to {@code sink}.
+     * The data region is mapped read-only, so records are decoded straight from the page cache
+     * instead of being loaded onto the heap.
+     *
+     * @return {@code false} if the sink asked to stop
+     */
+    static boolean scan(Path path, long fromMillis, long toMillis, Predicate<AuditEventDto> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header == null || header.isEmpty()
+                    || header.lastTimestamp() < fromMillis || header.firstTimestamp() > toMillis) {
+                return true;
+            }
+
+            int limit = (int) Math.min(header.dataEnd(), channel.size());
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, limit);
+            CRC32C crc = new CRC32C();
+
+            int position = HEADER_SIZE;
+            int length;
+            while ((length = validRecordLength(data, position, limit, crc)) > 0) {
+                ByteBuffer body = data.slice(position + Integer.BYTES, length);
+                long timestamp = AuditRecordCodec.timestampOf(body);
+                if (timestamp >= fromMillis && timestamp <= toMillis && !sink.test(AuditRecordCodec.decode(body))) {
+                    return false;
+                }
+                position += RECORD_OVERHEAD + length;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Length of the record body at {@code position}, or -1 if there is no intact record there.
+     */
+    private static int validRecordLength(ByteBuffer buffer, int position, int limit, CRC32C crc) {
+        if (position + RECORD_OVERHEAD > limit) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= Long.BYTES || length > limit - position - RECORD_OVERHEAD) {
+            return -1;
+        }
+        crc.reset();
+        crc.update(buffer.slice(position + Integer.BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES + length) ? length : -1;
+    }
+
+    /**
+     * Copy an encoded record into the mapped region. Nothing is visible to readers until {@link #commit}.
+     *
+     * @return {@code false} if the record does not fit and the segment must be rolled
+     */
+    boolean append(long timestamp, byte[] body) {
+        if ((long) position + RECORD_OVERHEAD + body.length > buffer.capacity()) {
+            return false;
+        }
+        crc.reset();
+        crc.update(body);
+        buffer.putInt(position, body.length);
+        buffer.put(position + Integer.BYTES, body);
+        buffer.putInt(position + Integer.BYTES + body.length, (int) crc.getValue());
+        position += RECORD_OVERHEAD + body.length;
+
+        firstTimestamp = Math.min(firstTimestamp, timestamp);
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        return true;
+    }
+
+    /**
+     * Publish everything appended so far by updating the header, and optionally flush the
+     * dirty range to disk. Called once per batch, which is what makes the commit a group commit.
+     */
+    void commit(boolean force) {
+        buffer.putLong(FIRST_TIMESTAMP_OFFSET, firstTimestamp);
+        buffer.putLong(LAST_TIMESTAMP_OFFSET, lastTimestamp);
+        buffer.putLong(DATA_END_OFFSET, position);
+        if (force) {
+            if (position > forcedPosition) {
+                buffer.force(forcedPosition, position - forcedPosition);
+                forcedPosition = position;
+            }
+            buffer.force(0, HEADER_SIZE);
+        }
+    }
+
+    /**
+     * Mark the segment read-only, flush it and trim the unused tail of the file.
+     */
+    void seal() throws IOException {
+        buffer.putInt(FLAGS_OFFSET, FLAG_SEALED);
+        commit(true);
+        channel.truncate(position);
+        channel.close();
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean isEmpty() {
+        return position == HEADER_SIZE;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            commit(true);
+            channel.close();
+        }
+    }
+
+    /**
+     * Write a sealed segment at {@code target} holding the records of {@code sources}, in order.
+     * The data regions are copied channel to channel, so nothing passes through the heap.
+     */
+    static void merge(Path target, long mergedThrough, Iterable<Path> sources) throws IOException {
+        long firstTimestamp = Long.MAX_VALUE;
+        long lastTimestamp = Long.MIN_VALUE;
+
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = HEADER_SIZE;
+            for (Path source : sources) {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                    Header header = readHeader(in);
+                    if (header == null || header.isEmpty()) {
+                        continue;
+                    }
+                    firstTimestamp = Math.min(firstTimestamp, header.firstTimestamp());
+                    lastTimestamp = Math.max(lastTimestamp, header.lastTimestamp());
+
+                    long copied = 0;
+                    while (copied < header.dataLength()) {
+                        copied += in.transferTo(HEADER_SIZE + copied, header.dataLength() - copied, out.position(position + copied));
+                    }
+                    position += copied;
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(FLAGS_OFFSET, FLAG_SEALED);
+            header.putLong(FIRST_TIMESTAMP_OFFSET, firstTimestamp);
+            header.putLong(LAST_TIMESTAMP_OFFSET, lastTimestamp);
+            header.putLong(DATA_END_OFFSET, position);
+            header.putLong(MERGED_THROUGH_OFFSET, mergedThrough);
+            while (header.hasRemaining()) {
+                out.write(header, header.position());
+            }
+            out.force(true);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.pkcedemo.backend.audit;
+
+import com.pkcedemo.backend.model.dto.AuditEventDto;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit log stored as a directory of memory-mapped segment files.
+ * <p>
+ * Callers hand records to a lock-free queue; a single writer thread drains the queue in batches, copies
+ * each batch into the active segment and flushes it once (group commit). The future returned by
+ * {@link #append} completes only after that flush, so every caller waiting on a batch shares one fsync.
+ * The writer also rolls segments by size and age, deletes segments past retention and merges runs of
+ * small sealed segments. Queries map segments read-only and stream matching records to a callback.
+ */
+@Slf4j
+public class MappedAuditLog implements Closeable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private record PendingRecord(long timestamp, byte[] body, CompletableFuture<Void> committed) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final boolean forceOnCommit;
+    private final long rollIntervalMillis;
+    private final long retentionMillis;
+    private final long compactionIntervalMillis;
+    private final Clock clock;
+
+    private final ConcurrentLinkedQueue<PendingRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Readers share the segment set; only compaction, which deletes and replaces files, needs it exclusively
+    private final ReentrantReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+    private final Thread writer = new Thread(this::runWriter, "audit-writer");
+
+    private volatile boolean running;
+    private volatile boolean writerParked;
+
+    // Owned by the writer thread
+    private final List<CompletableFuture<Void>> batchCommits = new ArrayList<>();
+    private AuditSegment active;
+    private long nextCompactionAt;
+
+    @Builder
+    private MappedAuditLog(Path directory, int segmentSize, int queueCapacity, int maxBatchSize,
+                           boolean forceOnCommit, Duration rollInterval, Duration retention,
+                           Duration compactionInterval, Clock clock) {
+        if (segmentSize <= AuditSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("Audit segment size must exceed " + AuditSegment.HEADER_SIZE + " bytes");
+        }
+        if (queueCapacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Audit queue capacity and batch size must be positive");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.forceOnCommit = forceOnCommit;
+        this.rollIntervalMillis = rollInterval.toMillis();
+        this.retentionMillis = retention.toMillis();
+        this.compactionIntervalMillis = compactionInterval.toMillis();
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Recover the tail segment (or create the first one) and start the writer thread.
+     */
+    public MappedAuditLog open() throws IOException {
+        Files.createDirectories(directory);
+        removeLeftovers();
+
+        List<Path> segments = listSegments();
+        if (!segments.isEmpty()) {
+            Path last = segments.get(segments.size() - 1);
+            active = AuditSegment.recover(last);
+            if (active == null) {
+                active = AuditSegment.create(directory, AuditSegment.sequenceOf(last) + 1, segmentSize);
+            }
+        } else {
+            active = AuditSegment.create(directory, 0, segmentSize);
+        }
+
+        nextCompactionAt = clock.millis();
+        running = true;
+        writer.start();
+        log.info("Audit log opened at {} (active segment {})", directory, active.path().getFileName());
+        return this;
+    }
+
+    /**
+     * Queue a record for the writer thread. Blocks only, briefly, when the queue is full so the log applies
+     * back-pressure instead of dropping records.
+     *
+     * @return a future completed once the batch holding the record is committed (and forced to disk when
+     * {@code forceOnCommit} is set), or completed exceptionally if the record could not be written
+     */
+    public CompletableFuture<Void> append(AuditEventDto event) {
+        if (!running) {
+            throw new IllegalStateException("Audit log is not open");
+        }
+        byte[] body = AuditRecordCodec.encode(event);
+        if (body.length > segmentSize - AuditSegment.HEADER_SIZE - AuditSegment.RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Audit record of " + body.length + " bytes does not fit in a segment");
+        }
+
+        while (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, BACKPRESSURE_PARK_NANOS);
+        }
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        queue.offer(new PendingRecord(event.getTimestamp().toEpochMilli(), body, committed));
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return committed;
+    }
+
+    /**
+     * Stream every committed record with a timestamp in {@code [from, to]} to {@code sink}, oldest segment
+     * first. The sink returns {@code false} to stop early.
+     *
+     * @return the number of records passed to the sink
+     */
+    public long scan(Instant from, Instant to, Predicate<AuditEventDto> sink) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        long[] count = {0};
+        Predicate<AuditEventDto> counting = event -> {
+            count[0]++;
+            return sink.test(event);
+        };
+
+        segmentsLock.readLock().lock();
+        try {
+            for (Path segment : listSegments()) {
+                if (!AuditSegment.scan(segment, fromMillis, toMillis, counting)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit log", e);
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+        return count[0];
+    }
+
+    /**
+     * Stop accepting records, drain the queue and flush the active segment.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        active.close();
+
+        // Records that raced with shutdown after the writer's last drain
+        PendingRecord record;
+        while ((record = queue.poll()) != null) {
+            record.committed().completeExceptionally(new IllegalStateException("Audit log closed"));
+        }
+        log.info("Audit log closed");
+    }
+
+    private void runWriter() {
+        maintain();
+        while (running || !queue.isEmpty()) {
+            try {
+                if (drainBatch() == 0) {
+                    idle();
+                }
+                maintain();
+            } catch (RuntimeException e) {
+                log.error("Audit writer failed", e);
+            }
+        }
+    }
+
+    private int drainBatch() {
+        int written = 0;
+        PendingRecord record;
+        while (written < maxBatchSize && (record = queue.poll()) != null) {
+            pending.decrementAndGet();
+            if (write(record)) {
+                batchCommits.add(record.committed());
+            }
+            written++;
+        }
+        if (written == 0) {
+            return 0;
+        }
+
+        try {
+            active.commit(forceOnCommit);
+            batchCommits.forEach(committed -> committed.complete(null));
+        } catch (RuntimeException e) {
+            batchCommits.forEach(committed -> committed.completeExceptionally(e));
+            throw e;
+        } finally {
+            batchCommits.clear();
+        }
+        return written;
+    }
+
+    private boolean write(PendingRecord record) {
+        try {
+            if (!active.append(record.timestamp(), record.body())) {
+                roll();
+                active.append(record.timestamp(), record.body());
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Dropping audit record at {}: failed to roll segment", Instant.ofEpochMilli(record.timestamp()), e);
+            record.committed().completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private void idle() {
+        writerParked = true;
+        if (running && queue.isEmpty()) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        writerParked = false;
+    }
+
+    private void maintain() {
+        long now = clock.millis();
+        try {
+            if (!active.isEmpty() && now - active.firstTimestamp() >= rollIntervalMillis) {
+                roll();
+            }
+            if (now >= nextCompactionAt) {
+                nextCompactionAt = now + compactionIntervalMillis;
+                compact(now);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Audit log maintenance failed", e);
+        }
+    }
+
+    private void roll() throws IOException {
+        // Switch to the new segment before sealing, so a failed seal never leaves a truncated file active
+        AuditSegment sealed = active;
+        active = AuditSegment.create(directory, sealed.sequence() + 1, segmentSize);
+        sealed.seal();
+        log.debug("Rolled audit segment {} -> {}", sealed.path().getFileName(), active.path().getFileName());
+    }
+
+    /**
+     * Delete sealed segments past retention and merge runs of adjacent sealed segments that fit into one.
+     * Skipped while a query holds the segment set; it will be retried on the next interval.
+     */
+    private void compact(long now) throws IOException {
+        if (!segmentsLock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            long cutoff = now - retentionMillis;
+            List<Path> run = new ArrayList<>();
+            long runLength = 0;
+
+            for (Path segment : listSegments()) {
+                if (segment.equals(active.path())) {
+                    break;
+                }
+                AuditSegment.Header header = AuditSegment.readHeader(segment);
+                if (header == null) {
+                    continue;
+                }
+                if (header.isEmpty() || header.lastTimestamp() < cutoff) {
+                    Files.deleteIfExists(segment);
+                    log.info("Removed expired audit segment {}", segment.getFileName());
+                    continue;
+                }
+                if (runLength + header.dataLength() > segmentSize - AuditSegment.HEADER_SIZE) {
+                    mergeRun(run);
+                    run.clear();
+                    runLength = 0;
+                }
+                run.add(segment);
+                runLength += header.dataLength();
+            }
+            mergeRun(run);
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace a run of sealed segments with one file named after the first. The merged header records the
+     * last sequence it covers so that {@link #removeLeftovers()} can finish the job after a crash.
+     */
+    private void mergeRun(List<Path> run) throws IOException {
+        if (run.size() < 2) {
+            return;
+        }
+        Path first = run.get(0);
+        long mergedThrough = AuditSegment.sequenceOf(run.get(run.size() - 1));
+        Path temp = first.resolveSibling(first.getFileName() + ".tmp");
+
+        Files.deleteIfExists(temp);
+        AuditSegment.merge(temp, mergedThrough, run);
+        Files.move(temp, first, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path merged : run.subList(1, run.size())) {
+            Files.deleteIfExists(merged);
+        }
+        log.info("Compacted {} audit segments into {}", run.size(), first.getFileName());
+    }
+
+    /**
+     * Clean up after an interrupted compaction: unfinished temp files and segments already merged into an earlier one.
+     */
+    private void removeLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path temp : files.filter(path -> path.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        long mergedThrough = -1;
+        for (Path segment : listSegments()) {
+            long sequence = AuditSegment.sequenceOf(segment);
+            if (sequence <= mergedThrough) {
+                Files.deleteIfExists(segment);
+                log.info("Removed audit segment {} already merged into an earlier segment", segment.getFileName());
+                continue;
+            }
+            AuditSegment.Header header = AuditSegment.readHeader(segment);
+            if (header != null) {
+                mergedThrough = Math.max(mergedThrough, header.mergedThrough());
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> AuditSegment.sequenceOf(path) >= 0)
+                    .sorted(Comparator.comparingLong(AuditSegment::sequenceOf))
+                    .toList();
+        }
+    }
+}
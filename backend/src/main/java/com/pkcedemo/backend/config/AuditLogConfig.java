@@ -0,0 +1,54 @@
+package com.pkcedemo.backend.config;
+
+import com.pkcedemo.backend.audit.MappedAuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class AuditLogConfig {
+
+    @Value("${audit.log.directory}")
+    private Path directory;
+
+    @Value("${audit.log.segment-size}")
+    private DataSize segmentSize;
+
+    @Value("${audit.log.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${audit.log.max-batch-size}")
+    private int maxBatchSize;
+
+    @Value("${audit.log.force-on-commit}")
+    private boolean forceOnCommit;
+
+    @Value("${audit.log.roll-interval}")
+    private Duration rollInterval;
+
+    @Value("${audit.log.retention}")
+    private Duration retention;
+
+    @Value("${audit.log.compaction-interval}")
+    private Duration compactionInterval;
+
+    @Bean(destroyMethod = "close")
+    public MappedAuditLog auditLog() throws IOException {
+        return MappedAuditLog.builder()
+                .directory(directory)
+                .segmentSize(Math.toIntExact(segmentSize.toBytes()))  // a mapped segment is capped at 2 GB
+                .queueCapacity(queueCapacity)
+                .maxBatchSize(maxBatchSize)
+                .forceOnCommit(forceOnCommit)
+                .rollInterval(rollInterval)
+                .retention(retention)
+                .compactionInterval(compactionInterval)
+                .build()
+                .open();
+    }
+}
@@ -1,8 +1,12 @@
 package com.pkcedemo.backend.controller;
 
+import com.pkcedemo.backend.model.dto.BulkUserRequestDto;
 import com.pkcedemo.backend.model.dto.UserRegistrationDto;
+import com.pkcedemo.backend.model.entity.BulkUserJob;
 import com.pkcedemo.backend.model.entity.User;
+import com.pkcedemo.backend.model.enums.BulkUserOperation;
 import com.pkcedemo.backend.repository.UserRepository;
+import com.pkcedemo.backend.service.BulkUserJobService;
 import com.pkcedemo.backend.service.UserManagementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +24,7 @@ public class UserController {
 
     private final UserManagementService userManagementService;
     private final UserRepository userRepository;
+    private final BulkUserJobService bulkUserJobService;
 
     @PostMapping("/register")
     @PreAuthorize("hasRole('ADMIN')")
@@ -41,4 +46,48 @@ public class UserController {
         userManagementService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk/deactivate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUserJob> bulkDeactivateUsers(@RequestBody BulkUserRequestDto request) {
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DEACTIVATE, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @PostMapping("/bulk/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUserJob> bulkDeleteUsers(@RequestBody BulkUserRequestDto request) {
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DELETE, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/bulk/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUserJob> getBulkJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(bulkUserJobService.getJob(jobId));
+    }
+
+    @PostMapping("/bulk/jobs/{jobId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUserJob> resumeBulkJob(@PathVariable Long jobId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkUserJobService.resumeJob(jobId));
+    }
+
+    @GetMapping("/bulk/jobs/{jobId}/failed-users")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Long>> getBulkJobFailedUsers(@PathVariable Long jobId) {
+        return ResponseEntity.ok(bulkUserJobService.getFailedUserIds(jobId));
+    }
+
+    @PostMapping("/bulk/jobs/{jobId}/retry-failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUserJob> retryBulkJobFailedUsers(@PathVariable Long jobId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkUserJobService.retryFailedUsers(jobId));
+    }
+
+    @PostMapping("/bulk/jobs/{jobId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUserJob> cancelBulkJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(bulkUserJobService.cancelJob(jobId));
+    }
 }
\ No newline at end of file
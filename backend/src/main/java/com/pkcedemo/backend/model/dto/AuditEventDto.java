@@ -0,0 +1,31 @@
+package com.pkcedemo.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A single audit record: who did what to which user, when, and how it ended.
+ * Action and outcome are kept as plain strings so old segments stay readable if the enums change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEventDto {
+
+    private Instant timestamp;
+
+    private String actor;
+
+    private String action;
+
+    private String target;
+
+    private String outcome;
+
+    private String detail;
+}
@@ -0,0 +1,26 @@
+package com.pkcedemo.backend.model.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the users a bulk operation applies to. Explicit IDs and filter fields are combined (AND).
+ * BulkUserJobService requires at least one narrowing selector (userIds, usernamePrefix or emailDomain) and
+ * rejects blank filters; {@code active} and {@code createdBefore} only refine that selection.
+ * The requesting admin's own account is never targeted.
+ */
+@Data
+public class BulkUserRequestDto {
+
+    private List<Long> userIds;
+
+    private String usernamePrefix;
+
+    private String emailDomain; // e.g. "departing-customer.com"
+
+    private Boolean active;
+
+    private LocalDateTime createdBefore;
+}
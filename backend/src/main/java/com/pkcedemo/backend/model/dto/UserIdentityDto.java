@@ -0,0 +1,16 @@
+package com.pkcedemo.backend.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The two identifiers needed to act on a user in both the database and Keycloak.
+ */
+@Data
+@AllArgsConstructor
+public class UserIdentityDto {
+
+    private Long id;
+
+    private String keycloakUserId;
+}
@@ -0,0 +1,92 @@
+package com.pkcedemo.backend.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pkcedemo.backend.model.enums.BulkUserJobStatus;
+import com.pkcedemo.backend.model.enums.BulkUserOperation;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A bulk deactivate/delete run. Users are processed in ascending ID order and
+ * {@code lastProcessedUserId} is the checkpoint a resumed job continues from.
+ */
+@Entity
+@Table(name = "bulk_user_jobs")
+@Data
+public class BulkUserJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BulkUserOperation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BulkUserJobStatus status = BulkUserJobStatus.PENDING;
+
+    private String requestedBy;
+
+    // Target selection: explicit IDs and/or filter, see BulkUserRequestDto
+    @ElementCollection
+    @CollectionTable(name = "bulk_user_job_targets", joinColumns = @JoinColumn(name = "job_id"))
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<Long> userIds = new HashSet<>();
+
+    private boolean targetsByIds;
+
+    private String usernamePrefix;
+
+    private String emailDomain;
+
+    private Boolean activeFilter;
+
+    private LocalDateTime createdBefore;
+
+    // Users Keycloak rejected; they are skipped by the checkpoint and can be retried as a new job
+    @ElementCollection
+    @CollectionTable(name = "bulk_user_job_failures", joinColumns = @JoinColumn(name = "job_id"))
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<Long> failedUserIds = new HashSet<>();
+
+    // Progress
+    @Column(nullable = false)
+    private long lastProcessedUserId;
+
+    @Column(nullable = false)
+    private long processedCount;
+
+    @Column(nullable = false)
+    private long succeededCount;
+
+    @Column(nullable = false)
+    private long failedCount;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,15 @@
+package com.pkcedemo.backend.model.enums;
+
+public enum AuditAction {
+    USER_REGISTER,
+    USER_DELETE,
+    KEYCLOAK_USER_CREATE,
+    KEYCLOAK_USER_UPDATE,
+    KEYCLOAK_USER_DELETE,
+    KEYCLOAK_PASSWORD_RESET,
+    KEYCLOAK_ROLE_ASSIGN,
+    KEYCLOAK_USER_ENABLE,
+    KEYCLOAK_USER_DISABLE,
+    BULK_USER_DEACTIVATE,
+    BULK_USER_DELETE
+}
@@ -0,0 +1,6 @@
+package com.pkcedemo.backend.model.enums;
+
+public enum AuditOutcome {
+    SUCCESS,
+    FAILURE
+}
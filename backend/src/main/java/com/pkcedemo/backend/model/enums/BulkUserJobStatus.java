@@ -0,0 +1,9 @@
+package com.pkcedemo.backend.model.enums;
+
+public enum BulkUserJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
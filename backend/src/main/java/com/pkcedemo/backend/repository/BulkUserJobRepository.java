@@ -0,0 +1,73 @@
+package com.pkcedemo.backend.repository;
+
+import com.pkcedemo.backend.model.entity.BulkUserJob;
+import com.pkcedemo.backend.model.enums.BulkUserJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkUserJobRepository extends JpaRepository<BulkUserJob, Long> {
+
+    List<BulkUserJob> findByStatusIn(Collection<BulkUserJobStatus> statuses);
+
+    @Query("SELECT f FROM BulkUserJob j JOIN j.failedUserIds f WHERE j.id = :id ORDER BY f")
+    List<Long> findFailedUserIds(@Param("id") Long id);
+
+    // Native insert so recording a failure never rewrites the job row (and its status) from a stale entity
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO bulk_user_job_failures (job_id, user_id) VALUES (:id, :userId)", nativeQuery = true)
+    int addFailedUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Move a job to {@code status} only if it is currently in one of {@code expected}.
+     * Returns 0 when another caller got there first.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BulkUserJob j SET j.status = :status, j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.status IN :expected""")
+    int updateStatus(@Param("id") Long id,
+                     @Param("expected") Collection<BulkUserJobStatus> expected,
+                     @Param("status") BulkUserJobStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BulkUserJob j SET
+                j.lastProcessedUserId = :lastProcessedUserId,
+                j.processedCount = j.processedCount + :processed,
+                j.succeededCount = j.succeededCount + :succeeded,
+                j.failedCount = j.failedCount + :failed,
+                j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id""")
+    int checkpoint(@Param("id") Long id,
+                   @Param("lastProcessedUserId") long lastProcessedUserId,
+                   @Param("processed") long processed,
+                   @Param("succeeded") long succeeded,
+                   @Param("failed") long failed);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BulkUserJob j SET j.status = com.pkcedemo.backend.model.enums.BulkUserJobStatus.COMPLETED,
+                j.completedAt = LOCAL DATETIME, j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.status = com.pkcedemo.backend.model.enums.BulkUserJobStatus.RUNNING""")
+    int markCompleted(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BulkUserJob j SET j.status = com.pkcedemo.backend.model.enums.BulkUserJobStatus.FAILED,
+                j.lastError = :error, j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.status = com.pkcedemo.backend.model.enums.BulkUserJobStatus.RUNNING""")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+}
@@ -1,9 +1,18 @@
 package com.pkcedemo.backend.repository;
 
+import com.pkcedemo.backend.model.dto.UserIdentityDto;
 import com.pkcedemo.backend.model.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +27,51 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Next chunk of users matching a bulk job, keyset-paginated by ID so each call
+     * continues after {@code afterId} instead of re-scanning with an offset.
+     * {@code usernamePrefix} and {@code emailDomain} must be escaped with {@link #escapeLike(String)}.
+     * {@code excludedUsername} keeps the requesting admin out of their own job.
+     */
+    @Query("""
+            SELECT new com.pkcedemo.backend.model.dto.UserIdentityDto(u.id, u.keycloakUserId)
+            FROM User u
+            WHERE u.id > :afterId
+              AND (:byIds = false OR u.id IN (SELECT t FROM BulkUserJob j JOIN j.userIds t WHERE j.id = :jobId))
+              AND (:usernamePrefix IS NULL OR u.username LIKE CONCAT(:usernamePrefix, '%') ESCAPE '!')
+              AND (:emailDomain IS NULL OR u.email LIKE CONCAT('%@', :emailDomain) ESCAPE '!')
+              AND (:active IS NULL OR u.active = :active)
+              AND (:createdBefore IS NULL OR u.createdAt < :createdBefore)
+              AND (:excludedUsername IS NULL OR u.username <> :excludedUsername)
+            ORDER BY u.id""")
+    List<UserIdentityDto> findBulkTargets(@Param("jobId") Long jobId,
+                                          @Param("byIds") boolean byIds,
+                                          @Param("usernamePrefix") String usernamePrefix,
+                                          @Param("emailDomain") String emailDomain,
+                                          @Param("active") Boolean active,
+                                          @Param("createdBefore") LocalDateTime createdBefore,
+                                          @Param("excludedUsername") String excludedUsername,
+                                          @Param("afterId") long afterId,
+                                          Limit limit);
+
+    /**
+     * Escape LIKE wildcards so a filter value only ever matches literally
+     */
+    static String escapeLike(String value) {
+        return value == null ? null : value
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.active = false, u.updatedAt = LOCAL DATETIME WHERE u.id IN :ids")
+    int deactivateAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.pkcedemo.backend.service;
+
+import com.pkcedemo.backend.model.dto.AuditEventDto;
+import com.pkcedemo.backend.model.enums.AuditAction;
+
+import java.time.Instant;
+import java.util.function.Predicate;
+
+public interface AuditService {
+    void recordSuccess(AuditAction action, String target, String detail);
+
+    void recordSuccessOnCommit(AuditAction action, String target, String detail);
+
+    void recordFailure(AuditAction action, String target, Throwable cause);
+
+    String currentActor();
+
+    void runAs(String actor, Runnable task);
+
+    void streamEvents(Instant from, Instant to, String actor, String action, Predicate<AuditEventDto> sink);
+}
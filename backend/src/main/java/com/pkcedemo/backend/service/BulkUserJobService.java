@@ -0,0 +1,21 @@
+package com.pkcedemo.backend.service;
+
+import com.pkcedemo.backend.model.dto.BulkUserRequestDto;
+import com.pkcedemo.backend.model.entity.BulkUserJob;
+import com.pkcedemo.backend.model.enums.BulkUserOperation;
+
+import java.util.List;
+
+public interface BulkUserJobService {
+    BulkUserJob startJob(BulkUserOperation operation, BulkUserRequestDto request);
+
+    BulkUserJob getJob(Long jobId);
+
+    BulkUserJob resumeJob(Long jobId);
+
+    BulkUserJob cancelJob(Long jobId);
+
+    List<Long> getFailedUserIds(Long jobId);
+
+    BulkUserJob retryFailedUsers(Long jobId);
+}
@@ -0,0 +1,168 @@
+package com.pkcedemo.backend.service.impl;
+
+import com.pkcedemo.backend.audit.MappedAuditLog;
+import com.pkcedemo.backend.model.dto.AuditEventDto;
+import com.pkcedemo.backend.model.enums.AuditAction;
+import com.pkcedemo.backend.model.enums.AuditOutcome;
+import com.pkcedemo.backend.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditServiceImpl implements AuditService {
+
+    private static final String SYSTEM_ACTOR = "system";
+
+    // Set by runAs() for background work acting on behalf of the admin who started it
+    private static final ThreadLocal<String> ACTOR_OVERRIDE = new ThreadLocal<>();
+
+    private final MappedAuditLog auditLog;
+
+    @Value("${audit.log.append-timeout}")
+    private Duration appendTimeout;
+
+    /**
+     * Record a completed admin operation
+     */
+    @Override
+    public void recordSuccess(AuditAction action, String target, String detail) {
+        record(action, target, AuditOutcome.SUCCESS, detail);
+    }
+
+    /**
+     * Record an operation whose effect is only durable once the current transaction commits.
+     * The event is written after commit as SUCCESS, or as FAILURE if the transaction rolls back.
+     */
+    @Override
+    public void recordSuccessOnCommit(AuditAction action, String target, String detail) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordSuccess(action, target, detail);
+            return;
+        }
+
+        // Capture who and when now; the security context may be gone by the time the transaction completes
+        AuditEventDto event = buildEvent(action, target, AuditOutcome.SUCCESS, detail);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    append(event);
+                } else {
+                    event.setOutcome(AuditOutcome.FAILURE.name());
+                    event.setDetail(status == STATUS_ROLLED_BACK
+                            ? "transaction rolled back" : "transaction outcome unknown");
+                    append(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Record a failed admin operation, keeping the failure reason
+     */
+    @Override
+    public void recordFailure(AuditAction action, String target, Throwable cause) {
+        record(action, target, AuditOutcome.FAILURE, cause != null ? cause.getMessage() : null);
+    }
+
+    /**
+     * Run a task with audit events attributed to the given actor
+     */
+    @Override
+    public void runAs(String actor, Runnable task) {
+        String previous = ACTOR_OVERRIDE.get();
+        ACTOR_OVERRIDE.set(actor);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                ACTOR_OVERRIDE.set(previous);
+            } else {
+                ACTOR_OVERRIDE.remove();
+            }
+        }
+    }
+
+    /**
+     * Stream audit events in the time range, optionally filtered by actor and action
+     */
+    @Override
+    public void streamEvents(Instant from, Instant to, String actor, String action, Predicate<AuditEventDto> sink) {
+        auditLog.scan(from, to, event -> {
+            if (actor != null && !actor.equals(event.getActor())) {
+                return true;
+            }
+            if (action != null && !action.equalsIgnoreCase(event.getAction())) {
+                return true;
+            }
+            return sink.test(event);
+        });
+    }
+
+    private void record(AuditAction action, String target, AuditOutcome outcome, String detail) {
+        append(buildEvent(action, target, outcome, detail));
+    }
+
+    private AuditEventDto buildEvent(AuditAction action, String target, AuditOutcome outcome, String detail) {
+        return AuditEventDto.builder()
+                .timestamp(Instant.now())
+                .actor(currentActor())
+                .action(action.name())
+                .target(target)
+                .outcome(outcome.name())
+                .detail(detail)
+                .build();
+    }
+
+    /**
+     * Append and wait for the group commit, so an operation does not return before its audit record is durable
+     */
+    private void append(AuditEventDto event) {
+        // Auditing must never break the operation being audited
+        try {
+            auditLog.append(event).get(appendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while recording audit event {}", event, e);
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            log.error("Failed to record audit event {}", event, e);
+        }
+    }
+
+    /**
+     * The admin responsible for the current operation: the runAs() actor on background threads,
+     * otherwise the authenticated user's preferred_username
+     */
+    @Override
+    public String currentActor() {
+        String override = ACTOR_OVERRIDE.get();
+        if (override != null) {
+            return override;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return SYSTEM_ACTOR;
+        }
+        if (authentication.getPrincipal() instanceof Jwt jwt) {
+            String username = jwt.getClaimAsString("preferred_username");
+            return username != null ? username : jwt.getSubject();
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,396 @@
+package com.pkcedemo.backend.service.impl;
+
+import com.pkcedemo.backend.model.dto.BulkUserRequestDto;
+import com.pkcedemo.backend.model.dto.UserIdentityDto;
+import com.pkcedemo.backend.model.entity.BulkUserJob;
+import com.pkcedemo.backend.model.enums.AuditAction;
+import com.pkcedemo.backend.model.enums.BulkUserJobStatus;
+import com.pkcedemo.backend.model.enums.BulkUserOperation;
+import com.pkcedemo.backend.repository.BulkUserJobRepository;
+import com.pkcedemo.backend.repository.UserRepository;
+import com.pkcedemo.backend.service.AuditService;
+import com.pkcedemo.backend.service.BulkUserJobService;
+import com.pkcedemo.backend.service.KeycloakUserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkUserJobServiceImpl implements BulkUserJobService {
+
+    private static final List<BulkUserJobStatus> RESUMABLE_STATUSES =
+            List.of(BulkUserJobStatus.FAILED, BulkUserJobStatus.CANCELLED);
+    private static final List<BulkUserJobStatus> UNFINISHED_STATUSES =
+            List.of(BulkUserJobStatus.PENDING, BulkUserJobStatus.RUNNING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final BulkUserJobRepository bulkUserJobRepository;
+    private final UserRepository userRepository;
+    private final KeycloakUserService keycloakUserService;
+    private final AuditService auditService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bulk.users.chunk-size}")
+    private int chunkSize;
+
+    @Value("${bulk.users.keycloak-concurrency}")
+    private int keycloakConcurrency;
+
+    @Value("${bulk.users.keycloak-requests-per-second}")
+    private int keycloakRequestsPerSecond;
+
+    // Jobs run one at a time; their Keycloak calls fan out over a bounded pool
+    private ExecutorService jobExecutor;
+    private ExecutorService keycloakExecutor;
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextKeycloakPermitNanos = new AtomicLong();
+    private long keycloakPermitIntervalNanos;
+
+    @PostConstruct
+    void startExecutors() {
+        jobExecutor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("bulk-user-job").daemon(true).factory());
+        keycloakExecutor = Executors.newFixedThreadPool(keycloakConcurrency,
+                Thread.ofPlatform().name("bulk-user-keycloak-", 0).daemon(true).factory());
+        keycloakPermitIntervalNanos = TimeUnit.SECONDS.toNanos(1) / keycloakRequestsPerSecond;
+        nextKeycloakPermitNanos.set(System.nanoTime());
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        // Interrupted jobs stay RUNNING and are picked up again from their checkpoint on the next start.
+        // Stop the job thread first: it is the one waiting on Keycloak calls that shutdownNow() would drop.
+        jobExecutor.shutdownNow();
+        try {
+            if (!jobExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Bulk user job thread did not stop within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        keycloakExecutor.shutdownNow();
+    }
+
+    /**
+     * Continue jobs that were still in flight when the application last stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        for (BulkUserJob job : bulkUserJobRepository.findByStatusIn(UNFINISHED_STATUSES)) {
+            log.info("Resuming bulk user job {} from user ID {}", job.getId(), job.getLastProcessedUserId());
+            submit(job.getId());
+        }
+    }
+
+    /**
+     * Create a bulk deactivate/delete job and start it in the background
+     */
+    @Override
+    public BulkUserJob startJob(BulkUserOperation operation, BulkUserRequestDto request) {
+        validateTargets(request);
+
+        BulkUserJob job = new BulkUserJob();
+        job.setOperation(operation);
+        job.setRequestedBy(auditService.currentActor());
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            job.setUserIds(new HashSet<>(request.getUserIds()));
+            job.setTargetsByIds(true);
+        }
+        job.setUsernamePrefix(request.getUsernamePrefix());
+        job.setEmailDomain(request.getEmailDomain());
+        job.setActiveFilter(request.getActive());
+        job.setCreatedBefore(request.getCreatedBefore());
+
+        BulkUserJob savedJob = bulkUserJobRepository.save(job);
+        log.info("Created bulk user job {} ({})", savedJob.getId(), operation);
+        auditService.recordSuccess(auditAction(operation), "job=" + savedJob.getId(), describeTargets(request));
+
+        submit(savedJob.getId());
+        return savedJob;
+    }
+
+    @Override
+    public BulkUserJob getJob(Long jobId) {
+        return bulkUserJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Bulk user job " + jobId + " not found"));
+    }
+
+    @Override
+    public List<Long> getFailedUserIds(Long jobId) {
+        getJob(jobId);
+        return bulkUserJobRepository.findFailedUserIds(jobId);
+    }
+
+    /**
+     * Start a new job for the users Keycloak rejected in a finished job
+     */
+    @Override
+    public BulkUserJob retryFailedUsers(Long jobId) {
+        BulkUserJob job = getJob(jobId);
+        if (UNFINISHED_STATUSES.contains(job.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Bulk user job " + jobId + " is still running");
+        }
+        List<Long> failedUserIds = bulkUserJobRepository.findFailedUserIds(jobId);
+        if (failedUserIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bulk user job " + jobId + " has no failed users");
+        }
+
+        BulkUserRequestDto request = new BulkUserRequestDto();
+        request.setUserIds(failedUserIds);
+        log.info("Retrying {} failed users of bulk user job {}", failedUserIds.size(), jobId);
+        return startJob(job.getOperation(), request);
+    }
+
+    /**
+     * Restart a failed or cancelled job from its last checkpoint
+     */
+    @Override
+    public BulkUserJob resumeJob(Long jobId) {
+        BulkUserJob job = getJob(jobId);
+        boolean resumed = bulkUserJobRepository.updateStatus(jobId, RESUMABLE_STATUSES, BulkUserJobStatus.PENDING) > 0;
+        // A job left PENDING/RUNNING by a crashed run is resumable too, as long as it is not running here
+        if (!resumed && !(UNFINISHED_STATUSES.contains(job.getStatus()) && !activeJobs.contains(jobId))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Bulk user job " + jobId + " cannot be resumed from status " + job.getStatus());
+        }
+
+        log.info("Resuming bulk user job {} from user ID {}", jobId, job.getLastProcessedUserId());
+        auditService.recordSuccess(auditAction(job.getOperation()), "job=" + jobId,
+                "resumed after user ID " + job.getLastProcessedUserId());
+        submit(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Stop a job after its current chunk; progress up to the checkpoint is kept
+     */
+    @Override
+    public BulkUserJob cancelJob(Long jobId) {
+        BulkUserJob job = getJob(jobId);
+        if (bulkUserJobRepository.updateStatus(jobId, UNFINISHED_STATUSES, BulkUserJobStatus.CANCELLED) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Bulk user job " + jobId + " cannot be cancelled from status " + job.getStatus());
+        }
+
+        log.info("Cancelled bulk user job {}", jobId);
+        auditService.recordSuccess(auditAction(job.getOperation()), "job=" + jobId, "cancelled");
+        return getJob(jobId);
+    }
+
+    private void submit(Long jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
+        jobExecutor.execute(() -> {
+            try {
+                runJob(jobId);
+            } finally {
+                activeJobs.remove(jobId);
+            }
+            // Pick up a resume that arrived while this run was winding down
+            if (!Thread.currentThread().isInterrupted() && getJob(jobId).getStatus() == BulkUserJobStatus.PENDING) {
+                submit(jobId);
+            }
+        });
+    }
+
+    /**
+     * Process the job chunk by chunk. Keycloak is called outside any transaction; each chunk's
+     * set-based UPDATE/DELETE and the checkpoint then commit together in one short transaction,
+     * so a restart never re-applies a committed chunk and never skips an uncommitted one.
+     */
+    private void runJob(Long jobId) {
+        if (bulkUserJobRepository.updateStatus(jobId, UNFINISHED_STATUSES, BulkUserJobStatus.RUNNING) == 0) {
+            return;
+        }
+
+        BulkUserJob job = getJob(jobId);
+        // Audit events from this job, including the per-user Keycloak calls, belong to the admin who started it
+        auditService.runAs(job.getRequestedBy(), () -> processJob(job));
+    }
+
+    private void processJob(BulkUserJob job) {
+        Long jobId = job.getId();
+        AuditAction action = auditAction(job.getOperation());
+        long lastProcessedUserId = job.getLastProcessedUserId();
+        try {
+            while (true) {
+                if (getJob(jobId).getStatus() != BulkUserJobStatus.RUNNING) {
+                    log.info("Bulk user job {} stopped at user ID {}", jobId, lastProcessedUserId);
+                    return;
+                }
+
+                List<UserIdentityDto> chunk = userRepository.findBulkTargets(jobId, job.isTargetsByIds(),
+                        UserRepository.escapeLike(job.getUsernamePrefix()), UserRepository.escapeLike(job.getEmailDomain()),
+                        job.getActiveFilter(), job.getCreatedBefore(), job.getRequestedBy(),
+                        lastProcessedUserId, Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                List<Boolean> results = applyToKeycloak(job, chunk);
+                List<Long> succeeded = new ArrayList<>();
+                List<Long> failed = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    (results.get(i) ? succeeded : failed).add(chunk.get(i).getId());
+                }
+                long chunkLastUserId = chunk.get(chunk.size() - 1).getId();
+
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!succeeded.isEmpty()) {
+                        if (job.getOperation() == BulkUserOperation.DELETE) {
+                            userRepository.deleteAllByIdIn(succeeded);
+                        } else {
+                            userRepository.deactivateAllByIdIn(succeeded);
+                        }
+                    }
+                    failed.forEach(userId -> bulkUserJobRepository.addFailedUserId(jobId, userId));
+                    bulkUserJobRepository.checkpoint(jobId, chunkLastUserId,
+                            chunk.size(), succeeded.size(), failed.size());
+                });
+                lastProcessedUserId = chunkLastUserId;
+                log.info("Bulk user job {}: {} of {} users in chunk succeeded, checkpoint at user ID {}",
+                        jobId, succeeded.size(), chunk.size(), lastProcessedUserId);
+            }
+
+            if (bulkUserJobRepository.markCompleted(jobId) > 0) {
+                BulkUserJob completed = getJob(jobId);
+                log.info("Completed bulk user job {}: {} succeeded, {} failed",
+                        jobId, completed.getSucceededCount(), completed.getFailedCount());
+                auditService.recordSuccess(action, "job=" + jobId, String.format("completed: %d succeeded, %d failed",
+                        completed.getSucceededCount(), completed.getFailedCount()));
+            }
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.warn("Bulk user job {} interrupted at user ID {}, it resumes from there on the next start",
+                        jobId, lastProcessedUserId);
+                return;
+            }
+            log.error("Bulk user job {} failed at user ID {}", jobId, lastProcessedUserId, e);
+            bulkUserJobRepository.markFailed(jobId, truncate(e.getMessage()));
+            auditService.recordFailure(action, "job=" + jobId, e);
+        }
+    }
+
+    /**
+     * Apply the operation to a chunk in Keycloak, in parallel and within the configured request rate.
+     *
+     * @return per user, in chunk order, whether Keycloak accepted the change
+     */
+    private List<Boolean> applyToKeycloak(BulkUserJob job, List<UserIdentityDto> chunk) {
+        // setUserEnabled is a GET followed by a PUT, so a deactivate costs two admin requests
+        int requestsPerUser = job.getOperation() == BulkUserOperation.DELETE ? 1 : 2;
+        List<CompletableFuture<Boolean>> calls = chunk.stream()
+                .map(user -> CompletableFuture.supplyAsync(
+                        () -> applyToKeycloak(job, user, requestsPerUser), keycloakExecutor))
+                .toList();
+
+        List<Boolean> results = new ArrayList<>(calls.size());
+        try {
+            for (CompletableFuture<Boolean> call : calls) {
+                results.add(call.get());
+            }
+        } catch (InterruptedException e) {
+            calls.forEach(call -> call.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Bulk user job " + job.getId() + " interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Keycloak call failed unexpectedly", e.getCause());
+        }
+        return results;
+    }
+
+    private boolean applyToKeycloak(BulkUserJob job, UserIdentityDto user, int requests) {
+        acquireKeycloakPermits(requests);
+        try {
+            auditService.runAs(job.getRequestedBy(), () -> {
+                if (job.getOperation() == BulkUserOperation.DELETE) {
+                    keycloakUserService.deleteUser(user.getKeycloakUserId());
+                } else {
+                    keycloakUserService.setUserEnabled(user.getKeycloakUserId(), false);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Bulk {} failed in Keycloak for user ID {}: {}", job.getOperation(), user.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reserve the next slot for {@code requests} Keycloak requests and wait for it,
+     * spacing requests evenly at the configured rate
+     */
+    private void acquireKeycloakPermits(int requests) {
+        long cost = keycloakPermitIntervalNanos * requests;
+        long now = System.nanoTime();
+        long slot = nextKeycloakPermitNanos.getAndAccumulate(now,
+                (next, current) -> Math.max(next, current) + cost);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static AuditAction auditAction(BulkUserOperation operation) {
+        return operation == BulkUserOperation.DELETE ? AuditAction.BULK_USER_DELETE : AuditAction.BULK_USER_DEACTIVATE;
+    }
+
+    private static String describeTargets(BulkUserRequestDto request) {
+        return String.format("userIds=%d, usernamePrefix=%s, emailDomain=%s, active=%s, createdBefore=%s",
+                request.getUserIds() != null ? request.getUserIds().size() : 0,
+                request.getUsernamePrefix(), request.getEmailDomain(), request.getActive(), request.getCreatedBefore());
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    /**
+     * Reject requests that would match every user: no target at all, or a blank filter value
+     */
+    private static void validateTargets(BulkUserRequestDto request) {
+        boolean byIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        if (byIds && request.getUserIds().stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must not contain null");
+        }
+        if (isBlankFilter(request.getUsernamePrefix()) || isBlankFilter(request.getEmailDomain())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filter values must not be blank");
+        }
+        // active and createdBefore alone can match every user, so they only narrow one of these
+        if (!byIds && request.getUsernamePrefix() == null && request.getEmailDomain() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds, usernamePrefix or emailDomain is required");
+        }
+    }
+
+    private static boolean isBlankFilter(String value) {
+        return value != null && value.isBlank();
+    }
+}
@@ -1,5 +1,7 @@
 package com.pkcedemo.backend.service.impl;
 
+import com.pkcedemo.backend.model.enums.AuditAction;
+import com.pkcedemo.backend.service.AuditService;
 import com.pkcedemo.backend.service.KeycloakUserService;
 import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,7 @@ import java.util.List;
 public class KeycloakUserServiceImpl implements KeycloakUserService {
 
     private final Keycloak keycloak;
+    private final AuditService auditService;
 
     @Value("${keycloak.admin.target-realm}")
     private String targetRealm;
@@ -47,18 +50,23 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
         user.setEmailVerified(false);
 
         // Create user
-        Response response = usersResource.create(user);
-
-        if (response.getStatus() != 201) {
-            log.error("Failed to create user in Keycloak. Status: {}, Body: {}",
-                    response.getStatus(), response.readEntity(String.class));
-            throw new RuntimeException("Failed to create user in Keycloak: " + response.getStatusInfo());
+        String userId;
+        try (Response response = usersResource.create(user)) {
+            if (response.getStatus() != 201) {
+                log.error("Failed to create user in Keycloak. Status: {}, Body: {}",
+                        response.getStatus(), response.readEntity(String.class));
+                throw new RuntimeException("Failed to create user in Keycloak: " + response.getStatusInfo());
+            }
+
+            // Extract user ID from location header
+            String locationHeader = response.getHeaderString("Location");
+            userId = locationHeader.substring(locationHeader.lastIndexOf('/') + 1);
+        } catch (RuntimeException e) {
+            auditService.recordFailure(AuditAction.KEYCLOAK_USER_CREATE, username, e);
+            throw e;
         }
-
-        // Extract user ID from location header
-        String locationHeader = response.getHeaderString("Location");
-        String userId = locationHeader.substring(locationHeader.lastIndexOf('/') + 1);
         log.info("Created Keycloak user with ID: {}", userId);
+        auditService.recordSuccess(AuditAction.KEYCLOAK_USER_CREATE, username, "keycloakUserId=" + userId);
 
         // Set password
         setUserPassword(userId, password);
@@ -68,7 +76,6 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
             assignRole(userId, role);
         }
 
-        response.close();
         return userId;
     }
 
@@ -85,8 +92,14 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
         credential.setValue(password);
         credential.setTemporary(false); // User won't be forced to change the password
 
-        userResource.resetPassword(credential);
+        try {
+            userResource.resetPassword(credential);
+        } catch (RuntimeException e) {
+            auditService.recordFailure(AuditAction.KEYCLOAK_PASSWORD_RESET, userId, e);
+            throw e;
+        }
         log.info("Password set for user ID: {}", userId);
+        auditService.recordSuccess(AuditAction.KEYCLOAK_PASSWORD_RESET, userId, null);
     }
 
     /**
@@ -97,12 +110,18 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
         RealmResource realmResource = keycloak.realm(targetRealm);
         UserResource userResource = realmResource.users().get(userId);
 
-        // Get realm role
-        RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
+        try {
+            // Get realm role
+            RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
 
-        // Assign role to user
-        userResource.roles().realmLevel().add(Collections.singletonList(role));
+            // Assign role to user
+            userResource.roles().realmLevel().add(Collections.singletonList(role));
+        } catch (RuntimeException e) {
+            auditService.recordFailure(AuditAction.KEYCLOAK_ROLE_ASSIGN, userId, e);
+            throw e;
+        }
         log.info("Assigned role '{}' to user ID: {}", roleName, userId);
+        auditService.recordSuccess(AuditAction.KEYCLOAK_ROLE_ASSIGN, userId, "role=" + roleName);
     }
 
     /**
@@ -111,8 +130,16 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
     @Override
     public void deleteUser(String userId) {
         RealmResource realmResource = keycloak.realm(targetRealm);
-        realmResource.users().delete(userId);
+        try (Response response = realmResource.users().delete(userId)) {
+            // 404 means the user is already gone, which is what the caller wants
+            if (response.getStatus() != 204 && response.getStatus() != 404) {
+                RuntimeException e = new RuntimeException("Failed to delete user in Keycloak: " + response.getStatusInfo());
+                auditService.recordFailure(AuditAction.KEYCLOAK_USER_DELETE, userId, e);
+                throw e;
+            }
+        }
         log.info("Deleted user ID: {}", userId);
+        auditService.recordSuccess(AuditAction.KEYCLOAK_USER_DELETE, userId, null);
     }
 
     /**
@@ -123,13 +150,19 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
         RealmResource realmResource = keycloak.realm(targetRealm);
         UserResource userResource = realmResource.users().get(userId);
 
-        UserRepresentation user = userResource.toRepresentation();
-        user.setEmail(email);
-        user.setFirstName(firstName);
-        user.setLastName(lastName);
+        try {
+            UserRepresentation user = userResource.toRepresentation();
+            user.setEmail(email);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
 
-        userResource.update(user);
+            userResource.update(user);
+        } catch (RuntimeException e) {
+            auditService.recordFailure(AuditAction.KEYCLOAK_USER_UPDATE, userId, e);
+            throw e;
+        }
         log.info("Updated user ID: {}", userId);
+        auditService.recordSuccess(AuditAction.KEYCLOAK_USER_UPDATE, userId, null);
     }
 
     /**
@@ -155,10 +188,17 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
         RealmResource realmResource = keycloak.realm(targetRealm);
         UserResource userResource = realmResource.users().get(userId);
 
-        UserRepresentation user = userResource.toRepresentation();
-        user.setEnabled(enabled);
+        AuditAction action = enabled ? AuditAction.KEYCLOAK_USER_ENABLE : AuditAction.KEYCLOAK_USER_DISABLE;
+        try {
+            UserRepresentation user = userResource.toRepresentation();
+            user.setEnabled(enabled);
 
-        userResource.update(user);
+            userResource.update(user);
+        } catch (RuntimeException e) {
+            auditService.recordFailure(action, userId, e);
+            throw e;
+        }
         log.info("Set user ID {} enabled: {}", userId, enabled);
+        auditService.recordSuccess(action, userId, null);
     }
 }
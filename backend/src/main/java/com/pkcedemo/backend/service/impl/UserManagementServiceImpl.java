@@ -2,7 +2,9 @@ package com.pkcedemo.backend.service.impl;
 
 import com.pkcedemo.backend.model.dto.UserRegistrationDto;
 import com.pkcedemo.backend.model.entity.User;
+import com.pkcedemo.backend.model.enums.AuditAction;
 import com.pkcedemo.backend.repository.UserRepository;
+import com.pkcedemo.backend.service.AuditService;
 import com.pkcedemo.backend.service.KeycloakUserService;
 import com.pkcedemo.backend.service.UserManagementService;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +19,7 @@ public class UserManagementServiceImpl implements UserManagementService {
 
     private final KeycloakUserService keycloakUserService;
     private final UserRepository userRepository;
+    private final AuditService auditService;
 
     /**
      * Register a new user in both Keycloak and internal database
@@ -27,11 +30,15 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         // 1. Validate user doesn't exist
         if (userRepository.existsByUsername(registrationDto.getUsername())) {
-            throw new RuntimeException("Username already exists");
+            RuntimeException e = new RuntimeException("Username already exists");
+            auditService.recordFailure(AuditAction.USER_REGISTER, registrationDto.getUsername(), e);
+            throw e;
         }
 
         if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new RuntimeException("Email already exists");
+            RuntimeException e = new RuntimeException("Email already exists");
+            auditService.recordFailure(AuditAction.USER_REGISTER, registrationDto.getUsername(), e);
+            throw e;
         }
 
         String keycloakUserId = null;
@@ -58,11 +65,14 @@ public class UserManagementServiceImpl implements UserManagementService {
 
             User savedUser = userRepository.save(user);
             log.info("Successfully registered user: {}", savedUser.getUsername());
+            auditService.recordSuccessOnCommit(AuditAction.USER_REGISTER, savedUser.getUsername(),
+                    "keycloakUserId=" + keycloakUserId);
 
             return savedUser;
 
         } catch (Exception e) {
             log.error("Failed to register user", e);
+            auditService.recordFailure(AuditAction.USER_REGISTER, registrationDto.getUsername(), e);
 
             // Rollback: Delete from Keycloak if DB save fails
             if (keycloakUserId != null) {
@@ -84,8 +94,12 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Transactional
     @Override
     public void deleteUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            RuntimeException e = new RuntimeException("User not found");
+            auditService.recordFailure(AuditAction.USER_DELETE, "id=" + userId, e);
+            throw e;
+        }
 
         try {
             // Delete from Keycloak
@@ -95,8 +109,10 @@ public class UserManagementServiceImpl implements UserManagementService {
             userRepository.delete(user);
 
             log.info("Successfully deleted user: {}", user.getUsername());
+            auditService.recordSuccessOnCommit(AuditAction.USER_DELETE, user.getUsername(), "id=" + userId);
         } catch (Exception e) {
             log.error("Failed to delete user", e);
+            auditService.recordFailure(AuditAction.USER_DELETE, user.getUsername(), e);
             throw new RuntimeException("Failed to delete user: " + e.getMessage(), e);
         }
     }
@@ -3,7 +3,7 @@ package com.pkcedemo.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "audit.log.directory=target/test-audit/application")
 class BackendApplicationTests {
 
     @Test
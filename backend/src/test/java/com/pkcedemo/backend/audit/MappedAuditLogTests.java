@@ -0,0 +1,266 @@
+package com.pkcedemo.backend.audit;
+
+import com.pkcedemo.backend.model.dto.AuditEventDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedAuditLogTests {
+
+    private static final Instant BASE = Instant.now().minus(Duration.ofHours(1));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveRestartAndFilterByTime() throws IOException {
+        try (MappedAuditLog log = open(64 * 1024)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(event(i));
+            }
+        }
+
+        try (MappedAuditLog log = open(64 * 1024)) {
+            log.append(event(100));
+            log.close();
+
+            List<AuditEventDto> all = collect(log, null, null);
+            assertEquals(101, all.size());
+            assertEquals("user-0", all.get(0).getTarget());
+            assertEquals("user-100", all.get(100).getTarget());
+            assertNull(all.get(0).getDetail());
+
+            List<AuditEventDto> range = collect(log, BASE.plusSeconds(10), BASE.plusSeconds(19));
+            assertEquals(10, range.size());
+            assertEquals("user-10", range.get(0).getTarget());
+        }
+    }
+
+    @Test
+    void rollsFullSegmentsAndCompactsThemOnRestart() throws IOException {
+        try (MappedAuditLog log = open(1024)) {
+            for (int i = 0; i < 200; i++) {
+                log.append(event(i));
+            }
+        }
+        long rolled = segmentCount();
+        assertTrue(rolled > 2, "expected the log to roll, found " + rolled + " segments");
+
+        // Compaction runs when the writer starts; closing waits for it
+        try (MappedAuditLog log = open(64 * 1024)) {
+            log.close();
+            assertEquals(2, segmentCount());
+            assertEquals(200, collect(log, null, null).size());
+        }
+    }
+
+    @Test
+    void appendCompletesOnceTheBatchIsCommitted() throws Exception {
+        try (MappedAuditLog log = open(64 * 1024)) {
+            log.append(event(0)).get(5, TimeUnit.SECONDS);
+
+            List<AuditEventDto> all = collect(log, null, null);
+            assertEquals(1, all.size());
+            assertEquals("user-0", all.get(0).getTarget());
+        }
+    }
+
+    @Test
+    void recoversFromCorruptedTailRecord() throws Exception {
+        writeAndDamageTail(10, (channel, lastRecord) -> {
+            ByteBuffer flipped = ByteBuffer.allocate(1);
+            channel.read(flipped, lastRecord + Integer.BYTES + Long.BYTES);
+            flipped.put(0, (byte) ~flipped.get(0));
+            channel.write(flipped.rewind(), lastRecord + Integer.BYTES + Long.BYTES);
+        });
+
+        assertRecoveredAfterLosingTail(9);
+    }
+
+    @Test
+    void recoversFromTruncatedTailRecord() throws Exception {
+        writeAndDamageTail(10, (channel, lastRecord) -> channel.truncate(lastRecord + Integer.BYTES + 3));
+
+        assertRecoveredAfterLosingTail(9);
+    }
+
+    @Test
+    void removesSegmentsPastRetention() throws Exception {
+        Instant expired = Instant.now().minus(Duration.ofDays(40));
+        try (MappedAuditLog log = open(1024)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(event(expired.plusSeconds(i), i));
+            }
+        }
+        // The last segment is the still-active tail, which compaction never touches
+        List<Path> segments = segments();
+        List<Path> expiredSegments = segments.subList(0, segments.size() - 1);
+        assertFalse(expiredSegments.isEmpty(), "expected the log to roll, found " + segments);
+
+        try (MappedAuditLog log = open(1024)) {
+            log.append(event(100)).get(5, TimeUnit.SECONDS);
+            log.close();
+
+            expiredSegments.forEach(segment -> assertFalse(Files.exists(segment), segment + " should be removed"));
+            List<AuditEventDto> all = collect(log, null, null);
+            assertEquals(1, all.size());
+            assertEquals("user-100", all.get(0).getTarget());
+        }
+    }
+
+    @Test
+    void openRemovesLeftoversOfInterruptedCompaction() throws Exception {
+        try (MappedAuditLog log = open(1024)) {
+            for (int i = 0; i < 200; i++) {
+                log.append(event(i));
+            }
+        }
+
+        // Crash after the merged file replaced the first segment but before the second was deleted
+        List<Path> segments = segments();
+        Path first = segments.get(0);
+        Path second = segments.get(1);
+        Path merged = first.resolveSibling(first.getFileName() + ".tmp");
+        AuditSegment.merge(merged, AuditSegment.sequenceOf(second), List.of(first, second));
+        Files.move(merged, first, StandardCopyOption.REPLACE_EXISTING);
+        Path unfinished = second.resolveSibling(second.getFileName() + ".tmp");
+        Files.write(unfinished, new byte[]{1, 2, 3});
+
+        try (MappedAuditLog log = open(1024)) {
+            log.close();
+
+            assertFalse(Files.exists(unfinished));
+            assertFalse(Files.exists(second));
+            List<AuditEventDto> all = collect(log, null, null);
+            assertEquals(200, all.size());
+            assertEquals(200, all.stream().map(AuditEventDto::getTarget).distinct().count());
+        }
+    }
+
+    @Test
+    void scanStopsWhenSinkDeclines() throws IOException {
+        try (MappedAuditLog log = open(64 * 1024)) {
+            for (int i = 0; i < 50; i++) {
+                log.append(event(i));
+            }
+            log.close();
+
+            List<AuditEventDto> taken = new ArrayList<>();
+            log.scan(null, null, event -> {
+                taken.add(event);
+                return taken.size() < 5;
+            });
+            assertEquals(5, taken.size());
+        }
+    }
+
+    /**
+     * Write {@code count} records to a fresh log, then hand the active segment and the offset of its last
+     * record to {@code damage}, as a crash in the middle of that record would leave it.
+     */
+    private void writeAndDamageTail(int count, TailDamage damage) throws IOException {
+        try (MappedAuditLog log = open(64 * 1024)) {
+            for (int i = 0; i < count; i++) {
+                log.append(event(i));
+            }
+        }
+
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            long position = AuditSegment.HEADER_SIZE;
+            long lastRecord = position;
+            for (int i = 0; i < count; i++) {
+                channel.read(length.clear(), position);
+                lastRecord = position;
+                position += AuditSegment.RECORD_OVERHEAD + length.getInt(0);
+            }
+            damage.apply(channel, lastRecord);
+        }
+    }
+
+    private void assertRecoveredAfterLosingTail(int survivors) throws Exception {
+        try (MappedAuditLog log = open(64 * 1024)) {
+            log.append(event(100)).get(5, TimeUnit.SECONDS);
+            log.close();
+
+            List<AuditEventDto> all = collect(log, null, null);
+            assertEquals(survivors + 1, all.size());
+            for (int i = 0; i < survivors; i++) {
+                assertEquals("user-" + i, all.get(i).getTarget());
+            }
+            assertEquals("user-100", all.get(survivors).getTarget());
+        }
+    }
+
+    @FunctionalInterface
+    private interface TailDamage {
+        void apply(FileChannel channel, long lastRecord) throws IOException;
+    }
+
+    private MappedAuditLog open(int segmentSize) throws IOException {
+        return MappedAuditLog.builder()
+                .directory(directory)
+                .segmentSize(segmentSize)
+                .queueCapacity(1024)
+                .maxBatchSize(64)
+                .forceOnCommit(false)
+                .rollInterval(Duration.ofDays(1))
+                .retention(Duration.ofDays(30))
+                .compactionInterval(Duration.ofHours(1))
+                .build()
+                .open();
+    }
+
+    private static AuditEventDto event(int i) {
+        return event(BASE.plusSeconds(i), i);
+    }
+
+    private static AuditEventDto event(Instant timestamp, int i) {
+        return AuditEventDto.builder()
+                .timestamp(timestamp)
+                .actor("admin")
+                .action("USER_DELETE")
+                .target("user-" + i)
+                .outcome("SUCCESS")
+                .build();
+    }
+
+    private static List<AuditEventDto> collect(MappedAuditLog log, Instant from, Instant to) {
+        List<AuditEventDto> events = new ArrayList<>();
+        log.scan(from, to, events::add);
+        return events;
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> AuditSegment.sequenceOf(path) >= 0)
+                    .sorted(Comparator.comparingLong(AuditSegment::sequenceOf))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.pkcedemo.backend.repository;
+
+import com.pkcedemo.backend.model.dto.UserIdentityDto;
+import com.pkcedemo.backend.model.entity.BulkUserJob;
+import com.pkcedemo.backend.model.entity.User;
+import com.pkcedemo.backend.model.enums.BulkUserOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class UserRepositoryTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BulkUserJobRepository bulkUserJobRepository;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        users = List.of(
+                user("alice", "alice@acme.com", true),
+                user("alex", "alex@other.com", true),
+                user("a_x", "a_x@acme.com", false),
+                user("abx", "abx@acme.com", true),
+                user("bob", "bob@acme.com", true));
+    }
+
+    @Test
+    void nullFiltersMatchEveryUserInIdOrder() {
+        assertEquals(ids(0, 1, 2, 3, 4), find(null, null, null, null, null, 0, 10));
+    }
+
+    @Test
+    void keysetContinuesAfterIdWithinLimit() {
+        assertEquals(ids(0, 1), find(null, null, null, null, null, 0, 2));
+        assertEquals(ids(2, 3), find(null, null, null, null, null, id(1), 2));
+        assertEquals(ids(4), find(null, null, null, null, null, id(3), 2));
+    }
+
+    @Test
+    void userIdsAndFiltersAreCombined() {
+        BulkUserJob job = new BulkUserJob();
+        job.setOperation(BulkUserOperation.DELETE);
+        job.setUserIds(Set.of(id(0), id(1), id(2)));
+        job.setTargetsByIds(true);
+        job = bulkUserJobRepository.save(job);
+
+        assertEquals(ids(0, 1, 2), find(job, null, null, null, null, 0, 10));
+        assertEquals(ids(0, 2), find(job, null, "acme.com", null, null, 0, 10));
+        assertEquals(ids(0), find(job, null, "acme.com", true, null, 0, 10));
+    }
+
+    @Test
+    void activeAndCreatedBeforeFilters() {
+        assertEquals(ids(2), find(null, null, null, false, null, 0, 10));
+        assertEquals(List.of(), find(null, null, null, null, LocalDateTime.now().minusDays(1), 0, 10));
+        assertEquals(ids(0, 1, 2, 3, 4), find(null, null, null, null, LocalDateTime.now().plusDays(1), 0, 10));
+    }
+
+    @Test
+    void likeWildcardsInFiltersMatchLiterally() {
+        assertEquals(ids(0, 1), find(null, "al", null, null, null, 0, 10));
+        assertEquals(ids(2), find(null, "a_", null, null, null, 0, 10));
+        assertEquals(List.of(), find(null, "%", null, null, null, 0, 10));
+        assertEquals(List.of(), find(null, null, "%", null, null, 0, 10));
+        assertEquals(ids(0, 2, 3, 4), find(null, null, "acme.com", null, null, 0, 10));
+    }
+
+    @Test
+    void excludedUsernameIsNeverMatched() {
+        assertEquals(ids(0, 2, 3), find(null, "a", "acme.com", null, null, null, 0, 10));
+        assertEquals(ids(2, 3), find(null, "a", "acme.com", null, null, "alice", 0, 10));
+    }
+
+    private List<Long> find(BulkUserJob job, String usernamePrefix, String emailDomain, Boolean active,
+                            LocalDateTime createdBefore, long afterId, int limit) {
+        return find(job, usernamePrefix, emailDomain, active, createdBefore, null, afterId, limit);
+    }
+
+    private List<Long> find(BulkUserJob job, String usernamePrefix, String emailDomain, Boolean active,
+                            LocalDateTime createdBefore, String excludedUsername, long afterId, int limit) {
+        return userRepository.findBulkTargets(job != null ? job.getId() : null, job != null,
+                        UserRepository.escapeLike(usernamePrefix), UserRepository.escapeLike(emailDomain),
+                        active, createdBefore, excludedUsername, afterId, Limit.of(limit))
+                .stream()
+                .map(UserIdentityDto::getId)
+                .toList();
+    }
+
+    private long id(int index) {
+        return users.get(index).getId();
+    }
+
+    private List<Long> ids(int... indexes) {
+        return Arrays.stream(indexes).mapToObj(this::id).toList();
+    }
+
+    private User user(String username, String email, boolean active) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setKeycloakUserId("kc-" + username);
+        user.setActive(active);
+        return userRepository.save(user);
+    }
+}
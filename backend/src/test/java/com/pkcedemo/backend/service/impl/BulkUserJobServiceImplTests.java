@@ -0,0 +1,223 @@
+package com.pkcedemo.backend.service.impl;
+
+import com.pkcedemo.backend.model.dto.BulkUserRequestDto;
+import com.pkcedemo.backend.model.entity.BulkUserJob;
+import com.pkcedemo.backend.model.entity.User;
+import com.pkcedemo.backend.model.enums.BulkUserJobStatus;
+import com.pkcedemo.backend.model.enums.BulkUserOperation;
+import com.pkcedemo.backend.repository.BulkUserJobRepository;
+import com.pkcedemo.backend.repository.UserRepository;
+import com.pkcedemo.backend.service.BulkUserJobService;
+import com.pkcedemo.backend.service.KeycloakUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "bulk.users.chunk-size=5",
+        "bulk.users.keycloak-requests-per-second=10000",
+        "audit.log.directory=target/test-audit/bulk-user-jobs"
+})
+class BulkUserJobServiceImplTests {
+
+    @MockitoBean
+    private KeycloakUserService keycloakUserService;
+
+    @Autowired
+    private BulkUserJobService bulkUserJobService;
+
+    @Autowired
+    private BulkUserJobRepository bulkUserJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        bulkUserJobRepository.deleteAll();
+        userRepository.deleteAll();
+        users = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@departing.com");
+            user.setFirstName("First");
+            user.setLastName("Last");
+            user.setKeycloakUserId("kc-" + i);
+            users.add(userRepository.save(user));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsRequestsThatWouldMatchEveryUser() {
+        assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.startJob(BulkUserOperation.DELETE, new BulkUserRequestDto()));
+
+        BulkUserRequestDto blankPrefix = new BulkUserRequestDto();
+        blankPrefix.setUsernamePrefix("");
+        assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.startJob(BulkUserOperation.DELETE, blankPrefix));
+
+        BulkUserRequestDto blankDomain = new BulkUserRequestDto();
+        blankDomain.setEmailDomain(" ");
+        assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.startJob(BulkUserOperation.DEACTIVATE, blankDomain));
+
+        BulkUserRequestDto onlyActive = new BulkUserRequestDto();
+        onlyActive.setActive(true);
+        assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.startJob(BulkUserOperation.DELETE, onlyActive));
+
+        BulkUserRequestDto onlyCreatedBefore = new BulkUserRequestDto();
+        onlyCreatedBefore.setCreatedBefore(LocalDateTime.of(2999, 1, 1, 0, 0));
+        assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.startJob(BulkUserOperation.DELETE, onlyCreatedBefore));
+
+        assertEquals(0, bulkUserJobRepository.count());
+        verify(keycloakUserService, never()).deleteUser(anyString());
+    }
+
+    @Test
+    void partialFailureRecordsFailedUsersForRetry() throws InterruptedException {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+        doThrow(new RuntimeException("Keycloak unavailable")).when(keycloakUserService).deleteUser("kc-3");
+        doThrow(new RuntimeException("Keycloak unavailable")).when(keycloakUserService).deleteUser("kc-11");
+
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DELETE, byDomain("departing.com"));
+        BulkUserJob done = awaitJob(job.getId(), j -> j.getStatus() == BulkUserJobStatus.COMPLETED);
+
+        assertEquals("admin", done.getRequestedBy());
+        assertEquals(15, done.getProcessedCount());
+        assertEquals(13, done.getSucceededCount());
+        assertEquals(2, done.getFailedCount());
+        assertEquals(List.of(users.get(3).getId(), users.get(11).getId()),
+                bulkUserJobService.getFailedUserIds(job.getId()));
+        assertEquals(2, userRepository.count());
+
+        reset(keycloakUserService);
+        BulkUserJob retry = bulkUserJobService.retryFailedUsers(job.getId());
+        BulkUserJob retried = awaitJob(retry.getId(), j -> j.getStatus() == BulkUserJobStatus.COMPLETED);
+
+        assertEquals(2, retried.getSucceededCount());
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void requestingAdminIsNeverTargeted() throws InterruptedException {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user4", null, "ROLE_ADMIN"));
+
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DELETE, byDomain("departing.com"));
+        BulkUserJob done = awaitJob(job.getId(), j -> j.getStatus() == BulkUserJobStatus.COMPLETED);
+
+        assertEquals(14, done.getSucceededCount());
+        assertEquals(List.of(users.get(4).getId()), userRepository.findAll().stream().map(User::getId).toList());
+        verify(keycloakUserService, never()).deleteUser("kc-4");
+    }
+
+    @Test
+    void unknownJobIsNotFoundAndFinishedJobCannotBeResumed() throws InterruptedException {
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.getJob(Long.MAX_VALUE));
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DELETE, byDomain("departing.com"));
+        awaitJob(job.getId(), j -> j.getStatus() == BulkUserJobStatus.COMPLETED);
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class,
+                () -> bulkUserJobService.resumeJob(job.getId()));
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+    }
+
+    @Test
+    void cancelStopsAfterCurrentChunkAndResumeContinuesFromCheckpoint() throws InterruptedException {
+        CountDownLatch reached = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            reached.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return null;
+        }).when(keycloakUserService).deleteUser("kc-7");
+
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DELETE, byDomain("departing.com"));
+        assertTrue(reached.await(10, TimeUnit.SECONDS));
+
+        // The second chunk is in flight: cancelling lets it finish and checkpoint, then stops
+        bulkUserJobService.cancelJob(job.getId());
+        release.countDown();
+        BulkUserJob cancelled = awaitJob(job.getId(), j -> j.getProcessedCount() == 10);
+        assertEquals(BulkUserJobStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(users.get(9).getId(), cancelled.getLastProcessedUserId());
+        assertEquals(5, userRepository.count());
+
+        bulkUserJobService.resumeJob(job.getId());
+        BulkUserJob done = awaitJob(job.getId(), j -> j.getStatus() == BulkUserJobStatus.COMPLETED);
+
+        assertEquals(15, done.getProcessedCount());
+        assertEquals(0, userRepository.count());
+        for (User user : users) {
+            verify(keycloakUserService, times(1)).deleteUser(user.getKeycloakUserId());
+        }
+    }
+
+    @Test
+    void deactivateDisablesUsersInKeycloakAndDatabase() throws InterruptedException {
+        BulkUserRequestDto request = new BulkUserRequestDto();
+        request.setUserIds(List.of(users.get(0).getId(), users.get(1).getId()));
+
+        BulkUserJob job = bulkUserJobService.startJob(BulkUserOperation.DEACTIVATE, request);
+        awaitJob(job.getId(), j -> j.getStatus() == BulkUserJobStatus.COMPLETED);
+
+        assertEquals(2, userRepository.findAll().stream().filter(user -> !user.isActive()).count());
+        verify(keycloakUserService).setUserEnabled("kc-0", false);
+        verify(keycloakUserService).setUserEnabled("kc-1", false);
+        verify(keycloakUserService, never()).deleteUser(anyString());
+    }
+
+    private static BulkUserRequestDto byDomain(String emailDomain) {
+        BulkUserRequestDto request = new BulkUserRequestDto();
+        request.setEmailDomain(emailDomain);
+        return request;
+    }
+
+    private BulkUserJob awaitJob(Long jobId, Predicate<BulkUserJob> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        BulkUserJob job = bulkUserJobService.getJob(jobId);
+        while (!condition.test(job)) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for bulk user job, last state: " + job);
+            Thread.sleep(20);
+            job = bulkUserJobService.getJob(jobId);
+        }
+        return job;
+    }
+}